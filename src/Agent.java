@@ -5,6 +5,11 @@
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
@@ -12,6 +17,8 @@ import java.io.BufferedReader;
 
 public class Agent {
     private static final double DELTA_COST_LIMIT = Math.pow(10, -10);
+    private static final double DIVERGENCE_FACTOR = Math.pow(10, 4);
+    private static final double LEARNING_RATE_TOLERANCE = Math.pow(10, -9);
 
     private List<DataPoint> data = null;
     private double learningRate = 0.005;
@@ -332,6 +339,32 @@ public class Agent {
         return batches;
     }
 
+    /**
+     * Runs a single epoch of mini-batch gradient descent, updating the weights in
+     * place.
+     * 
+     * @param data         Augmented training data
+     * @param weightVector The weights being fit
+     * @param learningRate Learning rate for mini-batch gradient descent
+     * @param batchSize    Size of the batches in mini-batch gradient descent
+     * 
+     * @return The number of iterations (batches) performed
+     */
+    private int runEpoch(List<DataPoint> data, List<Double> weightVector, double learningRate, int batchSize) {
+        int vectorSize = weightVector.size();
+        double gradient;
+        List<List<DataPoint>> batches = getBatches(data, batchSize);
+
+        for (List<DataPoint> batch : batches) {
+            for (int k = 0; k < vectorSize; k++) {
+                gradient = calculateGradient(batch, weightVector, k, vectorSize);
+                weightVector.set(k, weightVector.get(k) - (learningRate * gradient));
+            }
+        }
+
+        return batches.size();
+    }
+
     /**
      * Uses mini-batch gradient descent to fit a model for multiple linear
      * regression.
@@ -351,12 +384,10 @@ public class Agent {
         int e = 0;
         long startTime = System.currentTimeMillis();
         long timeElapsed;
-        double gradient;
         double startingCost;
         double deltaCost;
         double newCost;
         List<Double> weightVector = new ArrayList<>(Collections.nCopies(vectorSize, 0.0));
-        List<List<DataPoint>> batches = null;
 
         if (batchSize == 0) {
             batchSize = 1;
@@ -374,16 +405,7 @@ public class Agent {
 
         while (e <= this.epochLimit) {
             startingCost = calculateCost(data, weightVector);
-            batches = getBatches(data, batchSize);
-            for (List<DataPoint> batch : batches) {
-                for (int k = 0; k < vectorSize; k++) {
-                    gradient = calculateGradient(batch, weightVector, k, vectorSize);
-                    weightVector.set(k, weightVector.get(k) - (learningRate * gradient));
-                }
-
-                t++;
-            }
-
+            t += this.runEpoch(data, weightVector, learningRate, batchSize);
             e++;
             if (this.verbosity >= 3) {
                 if (e % 1000 == 0 || this.verbosity >= 5) {
@@ -487,4 +509,291 @@ public class Agent {
             }
         }
     }
+
+    /**
+     * Builds the learning rates to search by doubling from the minimum value until
+     * the maximum value is exceeded.
+     * 
+     * @param min The first learning rate in the range
+     * @param max The largest learning rate allowed in the range
+     * 
+     * @return The learning rates in the range
+     */
+    private static List<Double> getLearningRates(double min, double max) {
+        List<Double> learningRates = new ArrayList<>();
+
+        if (min <= 0) {
+            learningRates.add(min);
+            return learningRates;
+        }
+
+        for (double alpha = min; alpha <= max * (1 + LEARNING_RATE_TOLERANCE); alpha *= 2) {
+            learningRates.add(alpha);
+        }
+
+        return learningRates;
+    }
+
+    /**
+     * Builds the batch sizes to search by doubling from the minimum value until
+     * the maximum value is exceeded. Batch sizes of 0, 1, and anything at least as
+     * large as the smallest training fold all train on the full batch, so only the
+     * first of them is kept.
+     * 
+     * @param min      The first batch size in the range
+     * @param max      The largest batch size allowed in the range
+     * @param foldSize The number of data points in the smallest training fold
+     * 
+     * @return The batch sizes in the range
+     */
+    private static List<Integer> getBatchSizes(int min, int max, int foldSize) {
+        boolean fullBatch = false;
+        List<Integer> batchSizes = new ArrayList<>();
+
+        for (int m = min; m <= max; m = m <= 1 ? 2 : m * 2) {
+            if (m <= 1 || m >= foldSize) {
+                if (fullBatch) {
+                    break;
+                }
+
+                fullBatch = true;
+            }
+
+            batchSizes.add(m);
+            if (m >= foldSize || m > Integer.MAX_VALUE / 2) {
+                break;
+            }
+        }
+
+        return batchSizes;
+    }
+
+    /**
+     * Continues training every fold of a trial until it has seen the given number
+     * of epochs. Folds that have converged stop early and keep the number of
+     * epochs they actually ran, and the whole trial is marked as diverged as soon
+     * as any fold produces a NaN or exploding cost.
+     * 
+     * @param trial       The trial being trained
+     * @param epochBudget The total number of epochs the trial should reach
+     */
+    private void train(Trial trial, int epochBudget) {
+        double cost;
+        double newCost;
+        double trainingError = 0;
+        double validationError = 0;
+        List<DataPoint> data = null;
+        List<Double> weights = null;
+
+        for (int f = 0; f < trial.getFoldCount(); f++) {
+            data = trial.getTrainingData(f);
+            weights = trial.getWeights(f);
+            cost = calculateCost(data, weights);
+            if (trial.getEpochs(f) == 0) {
+                trial.setInitialCost(f, cost);
+            }
+
+            for (int e = trial.getEpochs(f); e < epochBudget && !trial.isConverged(f); e++) {
+                this.runEpoch(data, weights, trial.getLearningRate(), trial.getBatchSize());
+                newCost = calculateCost(data, weights);
+                if (Double.isNaN(newCost) || Double.isInfinite(newCost)
+                        || newCost > DIVERGENCE_FACTOR * Math.max(trial.getInitialCost(f), 1.0)) {
+                    trial.setStatus(Trial.Status.DIVERGED);
+                    trial.setEpochs(f, e + 1);
+                    trial.setTrainingError(Double.NaN);
+                    trial.setValidationError(Double.NaN);
+                    return;
+                }
+
+                trial.setEpochs(f, e + 1);
+                if (newCost < DELTA_COST_LIMIT || Math.abs(newCost - cost) < DELTA_COST_LIMIT) {
+                    trial.setConverged(f);
+                }
+
+                cost = newCost;
+            }
+
+            trainingError += cost;
+            validationError += calculateCost(trial.getValidationData(f), weights);
+        }
+
+        trial.setTrainingError(trainingError / trial.getFoldCount());
+        trial.setValidationError(validationError / trial.getFoldCount());
+    }
+
+    private static String getFormattedStatus(Trial trial) {
+        switch (trial.getStatus()) {
+            case PRUNED:
+                return "Pruned (rung " + (trial.getRung() + 1) + ")";
+            case DIVERGED:
+                return "Diverged (epoch " + trial.getEpochs() + ")";
+            default:
+                return "Completed";
+        }
+    }
+
+    private static String getFormattedError(double error) {
+        if (Double.isNaN(error)) {
+            return "-";
+        }
+
+        return String.format("%.6f", error);
+    }
+
+    private static void reportSearchResults(List<Trial> trials) {
+        List<Trial> ranking = new ArrayList<>(trials);
+        Trial trial = null;
+
+        ranking.sort(Comparator.comparing((Trial t) -> t.getStatus() == Trial.Status.DIVERGED)
+                .thenComparing(Comparator.comparingInt(Trial::getRung).reversed())
+                .thenComparingDouble(Trial::getValidationError));
+
+        System.out.println("----------------------------------");
+        System.out.println("* Search results (ranked by mean validation error):");
+        System.out.printf("  %4s %6s %12s %6s %7s %14s %14s  %s\n", "Rank", "Degree", "Alpha", "Batch", "Epochs",
+                "Train error", "Valid. error", "Status");
+        for (int i = 0; i < ranking.size(); i++) {
+            trial = ranking.get(i);
+            System.out.printf("  %4d %6d %12.6f %6d %7d %14s %14s  %s\n", i + 1, trial.getDegree(),
+                    trial.getLearningRate(), trial.getBatchSize(), trial.getEpochs(),
+                    getFormattedError(trial.getTrainingError()), getFormattedError(trial.getValidationError()),
+                    getFormattedStatus(trial));
+        }
+    }
+
+    /**
+     * Searches over polynomial degrees, learning rates and batch sizes, training
+     * every configuration concurrently and pruning them with successive halving.
+     * 
+     * Each rung trains the surviving configurations to a larger epoch budget
+     * (doubling up to the epoch limit), then keeps the half with the lowest mean
+     * K-Fold validation error. When the epoch limit is too small to give every
+     * halving its own budget, there are fewer rungs and each keeps a smaller
+     * fraction instead. Diverging configurations are dropped immediately.
+     * 
+     * Training data must be loaded prior to the execution of this method.
+     * 
+     * @param minPolynomial   The minimum degree of polynomial that will be searched
+     * @param maxPolynomial   The maximum degree of polynomial that will be searched
+     * @param k               The amount of folds used in K-Fold Cross Validation
+     *                        (must be at least 2, checked by the caller)
+     * @param maxLearningRate The largest learning rate that will be searched,
+     *                        starting from the Agent's learning rate
+     * @param maxBatchSize    The largest batch size that will be searched,
+     *                        starting from the Agent's batch size
+     */
+    public void search(Integer minPolynomial, Integer maxPolynomial, Integer k, Double maxLearningRate,
+            Integer maxBatchSize) throws InterruptedException, ExecutionException {
+        int rungs = 1;
+        int epochBudget;
+        int survivorCount;
+        int foldSize;
+        double reductionFactor = 2;
+        List<Double> learningRates = null;
+        List<Integer> batchSizes = null;
+        List<List<DataPoint>> folds = null;
+        List<List<DataPoint>> trainingData = null;
+        List<List<DataPoint>> validationData = null;
+        List<DataPoint> data = null;
+        List<Trial> trials = new ArrayList<>();
+        List<Trial> survivors = null;
+        List<Future<?>> futures = null;
+        ExecutorService executor = null;
+
+        if (this.data == null || this.data.isEmpty()) {
+            System.err.println("No training data detected.");
+            System.err.println("Please load training data into the Agent with the loadData method");
+            return;
+        }
+
+        folds = this.foldData(k);
+        foldSize = this.data.size();
+        for (List<DataPoint> fold : folds) {
+            foldSize = Math.min(foldSize, this.data.size() - fold.size());
+        }
+
+        learningRates = getLearningRates(this.learningRate, maxLearningRate);
+        batchSizes = getBatchSizes(this.batchSize, maxBatchSize, foldSize);
+        for (int d = minPolynomial; d < maxPolynomial + 1; d++) {
+            trainingData = new ArrayList<>(folds.size());
+            validationData = new ArrayList<>(folds.size());
+            for (int i = 0; i < folds.size(); i++) {
+                data = new ArrayList<>();
+                for (int j = 0; j < folds.size(); j++) {
+                    if (j != i) {
+                        data.addAll(folds.get(j));
+                    }
+                }
+
+                trainingData.add(augmentData(data, d));
+                validationData.add(augmentData(folds.get(i), d));
+            }
+
+            for (double alpha : learningRates) {
+                for (int m : batchSizes) {
+                    trials.add(new Trial(d, alpha, m, trainingData, validationData));
+                }
+            }
+        }
+
+        // Every rung needs a larger epoch budget than the last, or it would prune
+        // again on the same validation errors
+        while ((1 << (rungs - 1)) < trials.size() && (1 << rungs) <= this.epochLimit) {
+            rungs++;
+        }
+
+        if (rungs > 1) {
+            reductionFactor = Math.max(2, Math.pow(trials.size(), 1.0 / (rungs - 1)));
+        }
+
+        System.out.println("Using " + k + "-fold cross-validation.");
+        System.out.println("Searching " + trials.size() + " configurations over " + rungs
+                + " rungs of successive halving.");
+
+        survivors = new ArrayList<>(trials);
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            for (int r = 0; r < rungs && !survivors.isEmpty(); r++) {
+                epochBudget = Math.max(1, this.epochLimit / (1 << (rungs - 1 - r)));
+                futures = new ArrayList<>(survivors.size());
+                for (Trial trial : survivors) {
+                    final int budget = epochBudget;
+                    trial.setRung(r);
+                    futures.add(executor.submit(() -> this.train(trial, budget)));
+                }
+
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                survivors.removeIf(trial -> trial.getStatus() == Trial.Status.DIVERGED);
+                survivors.sort(Comparator.comparingDouble(Trial::getValidationError));
+                survivorCount = survivors.size();
+                if (r < rungs - 1) {
+                    survivorCount = (int) Math.ceil(survivorCount / reductionFactor);
+                }
+
+                for (int i = survivorCount; i < survivors.size(); i++) {
+                    survivors.get(i).setStatus(Trial.Status.PRUNED);
+                }
+
+                System.out.printf("  * Rung %d: trained to %d epochs, %d of %d configurations kept\n", r + 1,
+                        epochBudget, survivorCount, futures.size());
+                if (this.verbosity >= 3) {
+                    for (Trial trial : survivors) {
+                        System.out.printf("      degree=%d, alpha=%.6f, batchSize=%d:%15s%14s  %s\n",
+                                trial.getDegree(), trial.getLearningRate(), trial.getBatchSize(),
+                                getFormattedError(trial.getTrainingError()),
+                                getFormattedError(trial.getValidationError()), getFormattedStatus(trial));
+                    }
+                }
+
+                survivors = new ArrayList<>(survivors.subList(0, survivorCount));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        reportSearchResults(trials);
+    }
 }
@@ -15,6 +15,9 @@ public class Main {
         Integer batchSize = 0;
         Boolean randomization = false;
         Integer verbosity = 1;
+        Boolean search = false;
+        Double maxLearningRate = null;
+        Integer maxBatchSize = null;
         Integer i = 0;
 
         while (i < args.length) {
@@ -81,6 +84,25 @@ public class Main {
                         return;
                     }
                     break;
+                case "-A":
+                    try {
+                        maxLearningRate = Double.parseDouble(args[++i]);
+                    } catch (NumberFormatException err) {
+                        System.err.println("-A must be followed by a double");
+                        return;
+                    }
+                    break;
+                case "-M":
+                    try {
+                        maxBatchSize = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException err) {
+                        System.err.println("-M must be followed by an integer");
+                        return;
+                    }
+                    break;
+                case "-s":
+                    search = true;
+                    break;
                 case "-r":
                     randomization = true;
                     break;
@@ -117,8 +139,47 @@ public class Main {
             return;
         }
 
+        if (Double.isNaN(learningRate) || Double.isInfinite(learningRate)) {
+            System.err.println("Learning rate must be a finite number");
+            return;
+        }
+
+        if (!search && (maxLearningRate != null || maxBatchSize != null)) {
+            System.err.println("-A and -M can only be used with -s");
+            return;
+        }
+
+        if (maxLearningRate == null) {
+            maxLearningRate = learningRate;
+        } else if (Double.isNaN(maxLearningRate) || Double.isInfinite(maxLearningRate)) {
+            System.err.println("Max learning rate must be a finite number");
+            return;
+        } else if (maxLearningRate < learningRate) {
+            System.err.println("Max learning rate cannot be less than the min learning rate");
+            return;
+        } else if (learningRate <= 0) {
+            System.err.println("-A requires a learning rate (-a) greater than 0");
+            return;
+        }
+
+        if (maxBatchSize == null) {
+            maxBatchSize = batchSize;
+        } else if (maxBatchSize < batchSize) {
+            System.err.println("Max batch size cannot be less than the min batch size");
+            return;
+        }
+
+        if (search && folds < 2) {
+            System.err.println("-s requires -k of at least 2");
+            return;
+        }
+
         Agent agent = new Agent(learningRate, epochLimit, batchSize, randomization, verbosity);
         agent.loadData(filename);
-        agent.start(minPolynomial, maxPolynomial, folds);
+        if (search) {
+            agent.search(minPolynomial, maxPolynomial, folds, maxLearningRate, maxBatchSize);
+        } else {
+            agent.start(minPolynomial, maxPolynomial, folds);
+        }
     }
 }
@@ -0,0 +1,154 @@
+/*
+ * Author: Liam Tangney
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class Trial {
+    public enum Status {
+        ACTIVE,
+        PRUNED,
+        DIVERGED
+    }
+
+    private final int degree;
+    private final double learningRate;
+    private final int batchSize;
+    private final List<List<DataPoint>> trainingData;
+    private final List<List<DataPoint>> validationData;
+    private final List<List<Double>> weights;
+    private final double[] initialCosts;
+    private final boolean[] converged;
+    private final int[] epochs;
+    private Status status = Status.ACTIVE;
+    private int rung = 0;
+    private double trainingError = Double.NaN;
+    private double validationError = Double.NaN;
+
+    /**
+     * Creates a search trial for a single hyperparameter configuration.
+     *
+     * @param degree         The polynomial degree of the model being fit
+     * @param learningRate   Learning rate for mini-batch gradient descent
+     * @param batchSize      Size of the batches in mini-batch gradient descent
+     * @param trainingData   Augmented training data for each fold
+     * @param validationData Augmented validation data for each fold
+     */
+    public Trial(int degree, double learningRate, int batchSize, List<List<DataPoint>> trainingData,
+            List<List<DataPoint>> validationData) {
+        int vectorSize = trainingData.get(0).get(0).x.size();
+
+        this.degree = degree;
+        this.learningRate = learningRate;
+        this.batchSize = batchSize;
+        this.trainingData = trainingData;
+        this.validationData = validationData;
+        this.weights = new ArrayList<>(trainingData.size());
+        for (int i = 0; i < trainingData.size(); i++) {
+            this.weights.add(new ArrayList<>(Collections.nCopies(vectorSize, 0.0)));
+        }
+
+        this.initialCosts = new double[trainingData.size()];
+        this.converged = new boolean[trainingData.size()];
+        this.epochs = new int[trainingData.size()];
+    }
+
+    public int getDegree() {
+        return this.degree;
+    }
+
+    public double getLearningRate() {
+        return this.learningRate;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public int getFoldCount() {
+        return this.trainingData.size();
+    }
+
+    public List<DataPoint> getTrainingData(int fold) {
+        return this.trainingData.get(fold);
+    }
+
+    public List<DataPoint> getValidationData(int fold) {
+        return this.validationData.get(fold);
+    }
+
+    public List<Double> getWeights(int fold) {
+        return this.weights.get(fold);
+    }
+
+    public void setInitialCost(int fold, double cost) {
+        this.initialCosts[fold] = cost;
+    }
+
+    public double getInitialCost(int fold) {
+        return this.initialCosts[fold];
+    }
+
+    public void setConverged(int fold) {
+        this.converged[fold] = true;
+    }
+
+    public boolean isConverged(int fold) {
+        return this.converged[fold];
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    public void setEpochs(int fold, int epochs) {
+        this.epochs[fold] = epochs;
+    }
+
+    public int getEpochs(int fold) {
+        return this.epochs[fold];
+    }
+
+    /**
+     * @return The most epochs any fold of this trial has actually trained for
+     */
+    public int getEpochs() {
+        int epochs = 0;
+
+        for (int e : this.epochs) {
+            epochs = Math.max(epochs, e);
+        }
+
+        return epochs;
+    }
+
+    public void setRung(int rung) {
+        this.rung = rung;
+    }
+
+    public int getRung() {
+        return this.rung;
+    }
+
+    public void setTrainingError(double trainingError) {
+        this.trainingError = trainingError;
+    }
+
+    public double getTrainingError() {
+        return this.trainingError;
+    }
+
+    public void setValidationError(double validationError) {
+        this.validationError = validationError;
+    }
+
+    public double getValidationError() {
+        return this.validationError;
+    }
+}